@@ -27,6 +27,34 @@ public class EventGridMqttSample {
                 .type(Integer.class)
                 .build();
 
+        Option keepAliveOption = Option.builder("ka")
+                .longOpt("keepAlive")
+                .hasArg()
+                .desc("MQTT keep-alive interval in seconds (default 60)")
+                .type(Number.class)
+                .build();
+
+        Option maxInflightOption = Option.builder("mi")
+                .longOpt("maxInflight")
+                .hasArg()
+                .desc("Maximum unacknowledged QoS 1 messages in flight (default 10)")
+                .type(Number.class)
+                .build();
+
+        Option sendBufferOption = Option.builder("sb")
+                .longOpt("sendBuffer")
+                .hasArg()
+                .desc("Socket send buffer size in bytes (default: OS)")
+                .type(Number.class)
+                .build();
+
+        Option receiveBufferOption = Option.builder("rb")
+                .longOpt("receiveBuffer")
+                .hasArg()
+                .desc("Socket receive buffer size in bytes (default: OS)")
+                .type(Number.class)
+                .build();
+
         options.addOption("b", "broker", true, "Broker URL");
         options.addOption(portOption);
         options.addOption("id", "clientId", true, "Client ID");
@@ -36,6 +64,12 @@ public class EventGridMqttSample {
         options.addOption("cs", "cleanSession", false, "Clean session");
         options.addOption("cc", "clientCertPath", true, "Client certificate path (PKCS12)");
         options.addOption("pw", "clientCertPassword", true, "Client certificate password");
+        options.addOption(keepAliveOption);
+        options.addOption(maxInflightOption);
+        options.addOption("ng", "nagle", false, "Enable Nagle's algorithm (TCP_NODELAY is set by default)");
+        options.addOption("tk", "tcpKeepAlive", false, "Enable TCP keep-alive probes");
+        options.addOption(sendBufferOption);
+        options.addOption(receiveBufferOption);
 
         options.addOption("pub", "publish", false, "Publish message to topic");
         options.addOption("sub", "subscribe", false, "Subscribe to topic");
@@ -49,6 +83,8 @@ public class EventGridMqttSample {
         clientOptions.setPassword("");
         clientOptions.setPort(8883);
         clientOptions.setCleanSession(false);
+        clientOptions.setKeepAliveInterval(60);
+        clientOptions.setTcpNoDelay(true);
 
         CommandLineParser parser = new DefaultParser();
         try {
@@ -78,6 +114,24 @@ public class EventGridMqttSample {
             if (cmd.hasOption("pw")) {
                 clientOptions.setClientCertPassword(cmd.getOptionValue("pw"));
             }
+            if (cmd.hasOption("ka")) {
+                clientOptions.setKeepAliveInterval(((Number) cmd.getParsedOptionValue("ka")).intValue());
+            }
+            if (cmd.hasOption("mi")) {
+                clientOptions.setMaxInflight(((Number) cmd.getParsedOptionValue("mi")).intValue());
+            }
+            if (cmd.hasOption("ng")) {
+                clientOptions.setTcpNoDelay(false);
+            }
+            if (cmd.hasOption("tk")) {
+                clientOptions.setTcpKeepAlive(true);
+            }
+            if (cmd.hasOption("sb")) {
+                clientOptions.setSendBufferSize(((Number) cmd.getParsedOptionValue("sb")).intValue());
+            }
+            if (cmd.hasOption("rb")) {
+                clientOptions.setReceiveBufferSize(((Number) cmd.getParsedOptionValue("rb")).intValue());
+            }
             if (cmd.hasOption("m")) {
                 message = cmd.getOptionValue("m");
             }
@@ -139,8 +193,12 @@ public class EventGridMqttSample {
             options.setUserName(clientOptions.getUsername());
             options.setPassword(clientOptions.getPassword().toCharArray());
             options.setSocketFactory(MutualTLSSocketFactory.create(clientOptions.getClientCertPath(),
-                    clientOptions.getClientCertPassword()));
+                    clientOptions.getClientCertPassword(), clientOptions));
             options.setCleanSession(clientOptions.isCleanSession());
+            options.setKeepAliveInterval(clientOptions.getKeepAliveInterval());
+            if (clientOptions.getMaxInflight() > 0) {
+                options.setMaxInflight(clientOptions.getMaxInflight());
+            }
 
             System.out.println(MessageFormat.format(
                 "Connecting to broker {0} as user {1} with client ID {2} [clean session {3}]", 
@@ -11,6 +11,12 @@ public class MqttClientOptions {
     private boolean cleanSession;
     private String clientCertPath;
     private String clientCertPassword;
+    private int keepAliveInterval;
+    private int maxInflight;
+    private boolean tcpNoDelay;
+    private boolean tcpKeepAlive;
+    private int sendBufferSize;
+    private int receiveBufferSize;
 
     public String getBroker() {
         return broker;
@@ -84,6 +90,54 @@ public class MqttClientOptions {
         this.clientCertPassword = clientCertPassword;
     }
 
+    public int getKeepAliveInterval() {
+        return keepAliveInterval;
+    }
+
+    public void setKeepAliveInterval(int keepAliveInterval) {
+        this.keepAliveInterval = keepAliveInterval;
+    }
+
+    public int getMaxInflight() {
+        return maxInflight;
+    }
+
+    public void setMaxInflight(int maxInflight) {
+        this.maxInflight = maxInflight;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public boolean isTcpKeepAlive() {
+        return tcpKeepAlive;
+    }
+
+    public void setTcpKeepAlive(boolean tcpKeepAlive) {
+        this.tcpKeepAlive = tcpKeepAlive;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
     public boolean validate() {
         return broker != null && 
             clientId != null && 
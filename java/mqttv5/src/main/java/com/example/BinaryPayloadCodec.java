@@ -0,0 +1,169 @@
+package com.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Compact layout: version byte, zigzag varint sequence and timestamp, then source and text as
+// varint (UTF-8 length + 1) prefixed strings where a zero prefix encodes null
+public class BinaryPayloadCodec implements PayloadCodec {
+
+    public static final String CONTENT_TYPE = "application/octet-stream";
+
+    private static final byte VERSION = 1;
+
+    private byte[] buffer = new byte[128];
+    private int length;
+
+    private byte[] input;
+    private int position;
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(TelemetryMessage message) {
+        length = 0;
+        ensureCapacity(1);
+        buffer[length++] = VERSION;
+        writeVarLong(zigzag(message.getSequence()));
+        writeVarLong(zigzag(message.getTimestamp()));
+        writeString(message.getSource());
+        writeString(message.getText());
+        // Paho keeps a reference to the payload until it is sent, so the scratch buffer cannot be handed out
+        return Arrays.copyOf(buffer, length);
+    }
+
+    @Override
+    public TelemetryMessage decode(byte[] payload) {
+        input = payload;
+        position = 0;
+        try {
+            if (payload.length == 0 || payload[position++] != VERSION) {
+                throw malformed("unsupported version");
+            }
+            long sequence = unzigzag(readVarLong());
+            long timestamp = unzigzag(readVarLong());
+            String source = readString();
+            String text = readString();
+            if (position != payload.length) {
+                throw malformed("trailing bytes");
+            }
+            return new TelemetryMessage(source, sequence, timestamp, text);
+        } finally {
+            input = null;
+        }
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        int encodedLength = utf8Length(value);
+        writeVarLong(encodedLength + 1L);
+        ensureCapacity(encodedLength);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[length++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[length++] = (byte) (0xC0 | (c >> 6));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[length++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are replaced, matching String.getBytes
+                buffer[length++] = (byte) '?';
+            } else {
+                buffer[length++] = (byte) (0xE0 | (c >> 12));
+                buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static int utf8Length(String value) {
+        int count = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                count++;
+            } else if (c < 0x800) {
+                count += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                count += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                count++;
+            } else {
+                count += 3;
+            }
+        }
+        return count;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+        }
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= input.length) {
+                throw malformed("truncated varint");
+            }
+            byte b = input[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw malformed("varint too long");
+    }
+
+    private String readString() {
+        long prefix = readVarLong();
+        if (prefix == 0) {
+            return null;
+        }
+        long encodedLength = prefix - 1;
+        if (encodedLength < 0 || encodedLength > input.length - position) {
+            throw malformed("truncated string");
+        }
+        String value = new String(input, position, (int) encodedLength, StandardCharsets.UTF_8);
+        position += (int) encodedLength;
+        return value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private IllegalArgumentException malformed(String reason) {
+        return new IllegalArgumentException("Malformed binary payload at offset " + position + ": " + reason);
+    }
+
+}
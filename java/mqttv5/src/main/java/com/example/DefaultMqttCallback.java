@@ -13,12 +13,18 @@ import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
 public class DefaultMqttCallback implements MqttCallback {
 
     private final PrintStream stream;
+    private final TopicRouter router;
 
     public DefaultMqttCallback(PrintStream stream) {
+        this(stream, null);
+    }
+
+    public DefaultMqttCallback(PrintStream stream, TopicRouter router) {
         if (stream == null) {
             throw new IllegalArgumentException("PrintStream cannot be null");
         }
         this.stream = stream;
+        this.router = router;
     }
 
     @Override
@@ -39,6 +45,9 @@ public class DefaultMqttCallback implements MqttCallback {
 
     @Override
     public void messageArrived(String topic, MqttMessage message) throws Exception {
+        if (router != null && router.route(topic, message)) {
+            return;
+        }
         stream.println(MessageFormat.format("Received message from topic {0}: {1}", topic, message.toString()));
     }
 
@@ -0,0 +1,28 @@
+package com.example;
+
+import java.nio.charset.StandardCharsets;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenRequestContext;
+import com.azure.identity.DefaultAzureCredential;
+import com.azure.identity.DefaultAzureCredentialBuilder;
+
+// Kept separate from EventGridMqttSample so azure-identity is only loaded when Entra ID authentication is used
+public final class EntraIDAuthentication {
+
+    public static final String AUTH_METHOD = "OAUTH2-JWT";
+
+    private static final String EVENT_GRID_SCOPE = "https://eventgrid.azure.net/.default";
+
+    private EntraIDAuthentication() {
+    }
+
+    public static byte[] acquireToken() {
+        DefaultAzureCredential credential = new DefaultAzureCredentialBuilder().build();
+        TokenRequestContext tokenRequestContext = new TokenRequestContext();
+        tokenRequestContext.addScopes(EVENT_GRID_SCOPE);
+        AccessToken token = credential.getTokenSync(tokenRequestContext);
+        return token.getToken().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
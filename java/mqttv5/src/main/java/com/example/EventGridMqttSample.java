@@ -3,6 +3,7 @@ package com.example;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
@@ -10,19 +11,28 @@ import org.eclipse.paho.mqttv5.client.*;
 import org.eclipse.paho.mqttv5.client.persist.MemoryPersistence;
 import org.eclipse.paho.mqttv5.common.MqttException;
 import org.eclipse.paho.mqttv5.common.MqttMessage;
-
-import com.azure.core.credential.AccessToken;
-import com.azure.core.credential.TokenRequestContext;
-import com.azure.identity.DefaultAzureCredential;
-import com.azure.identity.DefaultAzureCredentialBuilder;
+import org.eclipse.paho.mqttv5.common.MqttSubscription;
+import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
+import org.eclipse.paho.mqttv5.common.packet.MqttReturnCode;
 
 import java.io.PrintStream;
-import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLSocketFactory;
 
 public class EventGridMqttSample {
 
+    private static final double DEFAULT_PUBLISH_RATE = 0.5;
+    private static final long STATUS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
     private static volatile boolean isRunning = true;
 
     public static void main(String[] args) {
@@ -35,23 +45,112 @@ public class EventGridMqttSample {
                 .type(Integer.class)
                 .build();
 
+        Option topicOption = Option.builder("t")
+                .longOpt("topic")
+                .hasArgs()
+                .desc("Topic (may be repeated; subscribers accept + and # wildcards)")
+                .build();
+
+        Option soakOption = Option.builder("soak")
+                .longOpt("soakDuration")
+                .hasArg()
+                .desc("Run a soak test for the given number of seconds, then disconnect")
+                .type(Number.class)
+                .build();
+
+        Option soakIntervalOption = Option.builder("si")
+                .longOpt("soakInterval")
+                .hasArg()
+                .desc("Soak test sampling interval in seconds (default 10)")
+                .type(Number.class)
+                .build();
+
+        Option maxRateOption = Option.builder("mr")
+                .longOpt("maxRate")
+                .hasArg()
+                .desc("Maximum adaptive publish rate in messages per second (default 1000)")
+                .type(Number.class)
+                .build();
+
+        Option latencyTargetOption = Option.builder("lt")
+                .longOpt("latencyTarget")
+                .hasArg()
+                .desc("Adaptive publish PUBACK latency target in milliseconds (default 100)")
+                .type(Number.class)
+                .build();
+
+        Option dedupWindowOption = Option.builder("dw")
+                .longOpt("dedupWindow")
+                .hasArg()
+                .desc("Sequence numbers tracked per publisher for duplicate detection, multiple of 64 (default 1024)")
+                .type(Number.class)
+                .build();
+
+        Option keepAliveOption = Option.builder("ka")
+                .longOpt("keepAlive")
+                .hasArg()
+                .desc("MQTT keep-alive interval in seconds (default 60)")
+                .type(Number.class)
+                .build();
+
+        Option maxInflightOption = Option.builder("mi")
+                .longOpt("maxInflight")
+                .hasArg()
+                .desc("Receive maximum: unacknowledged QoS 1 messages the broker may send at once")
+                .type(Number.class)
+                .build();
+
+        Option sendBufferOption = Option.builder("sb")
+                .longOpt("sendBuffer")
+                .hasArg()
+                .desc("Socket send buffer size in bytes (default: OS)")
+                .type(Number.class)
+                .build();
+
+        Option receiveBufferOption = Option.builder("rb")
+                .longOpt("receiveBuffer")
+                .hasArg()
+                .desc("Socket receive buffer size in bytes (default: OS)")
+                .type(Number.class)
+                .build();
+
         options.addOption("b", "broker", true, "Broker URL");
         options.addOption(portOption);
         options.addOption("id", "clientId", true, "Client ID");
         options.addOption("u", "username", true, "Username");
-        options.addOption("t", "topic", true, "Topic");
+        options.addOption(topicOption);
         options.addOption("m", "message", true, "Message");
+        options.addOption("f", "format", true, "Payload format: text, json or binary (default text)");
         options.addOption("cs", "cleanSession", false, "Clean session");
         options.addOption("aad", "useEntraIDAuth", false, "Authenticate with Ebtra ID");
         options.addOption("cc", "clientCertPath", true, "Client certificate path (PKCS12)");
         options.addOption("pw", "clientCertPassword", true, "Client certificate password");
+        options.addOption(keepAliveOption);
+        options.addOption(maxInflightOption);
+        options.addOption("ng", "nagle", false, "Enable Nagle's algorithm (TCP_NODELAY is set by default)");
+        options.addOption("tk", "tcpKeepAlive", false, "Enable TCP keep-alive probes");
+        options.addOption(sendBufferOption);
+        options.addOption(receiveBufferOption);
 
+        options.addOption("h", "help", false, "Print this help and exit");
         options.addOption("pub", "publish", false, "Publish message to topic");
         options.addOption("sub", "subscribe", false, "Subscribe to topic");
+        options.addOption("ar", "adaptiveRate", false, "Adapt publish rate to PUBACK latency and broker throttling");
+        options.addOption(maxRateOption);
+        options.addOption(latencyTargetOption);
+        options.addOption("dd", "dedup", false, "Detect duplicate, reordered and missing messages per publisher");
+        options.addOption(dedupWindowOption);
+        options.addOption(soakOption);
+        options.addOption(soakIntervalOption);
+        options.addOption("so", "soakOutput", true, "Soak test output file, .csv or .json (default soak.csv)");
 
         String message = "Hello MQTT from Java!";
+        String payloadFormat = "text";
         boolean isPublisher = false;
         boolean isSubscriber = false;
+        SoakMonitor soakMonitor = null;
+        int dedupWindow = 0;
+        PublishRateController rateController = PublishRateController.fixed(DEFAULT_PUBLISH_RATE, System.out);
 
         long pid = Thread.currentThread().getId();
         String defaultClientId = "mqtt-client-" + pid;
@@ -61,10 +160,16 @@ public class EventGridMqttSample {
         clientOptions.setPassword("");
         clientOptions.setPort(8883);
         clientOptions.setCleanSession(false);
+        clientOptions.setKeepAliveInterval(60);
+        clientOptions.setTcpNoDelay(true);
 
         CommandLineParser parser = new DefaultParser();
         try {
             CommandLine cmd = parser.parse(options, args);
+            if (cmd.hasOption("h")) {
+                new HelpFormatter().printHelp("EventGridMqttSample", options);
+                System.exit(0);
+            }
             if (cmd.hasOption("b")) {
                 clientOptions.setBroker(cmd.getOptionValue("b"));
             }
@@ -79,7 +184,9 @@ public class EventGridMqttSample {
                 clientOptions.setUsername(cmd.getOptionValue("u"));
             }
             if (cmd.hasOption("t")) {
-                clientOptions.setTopic(cmd.getOptionValue("t"));
+                for (String topic : cmd.getOptionValues("t")) {
+                    clientOptions.addTopic(topic);
+                }
             }
             if (cmd.hasOption("cs")) {
                 clientOptions.setCleanSession(true);
@@ -93,16 +200,61 @@ public class EventGridMqttSample {
             if (cmd.hasOption("aad")) {
                 clientOptions.setUseEntraID(true);
             }
+            if (cmd.hasOption("ka")) {
+                clientOptions.setKeepAliveInterval(((Number) cmd.getParsedOptionValue("ka")).intValue());
+            }
+            if (cmd.hasOption("mi")) {
+                clientOptions.setMaxInflight(((Number) cmd.getParsedOptionValue("mi")).intValue());
+            }
+            if (cmd.hasOption("ng")) {
+                clientOptions.setTcpNoDelay(false);
+            }
+            if (cmd.hasOption("tk")) {
+                clientOptions.setTcpKeepAlive(true);
+            }
+            if (cmd.hasOption("sb")) {
+                clientOptions.setSendBufferSize(((Number) cmd.getParsedOptionValue("sb")).intValue());
+            }
+            if (cmd.hasOption("rb")) {
+                clientOptions.setReceiveBufferSize(((Number) cmd.getParsedOptionValue("rb")).intValue());
+            }
             if (cmd.hasOption("m")) {
                 message = cmd.getOptionValue("m");
             }
+            if (cmd.hasOption("f")) {
+                payloadFormat = cmd.getOptionValue("f");
+                if (!PayloadCodec.FORMATS.contains(payloadFormat)) {
+                    throw new IllegalArgumentException("Unknown payload format: " + payloadFormat);
+                }
+            }
             if (cmd.hasOption("pub")) {
                 isPublisher = true;
             }
             if (cmd.hasOption("sub")) {
                 isSubscriber = true;
             }
-        } catch (ParseException e) {
+            if (cmd.hasOption("ar")) {
+                double maxRate = cmd.hasOption("mr") ? ((Number) cmd.getParsedOptionValue("mr")).doubleValue() : 1000;
+                long latencyTarget = cmd.hasOption("lt") ? ((Number) cmd.getParsedOptionValue("lt")).longValue()
+                        : 100;
+                rateController = new PublishRateController(DEFAULT_PUBLISH_RATE, DEFAULT_PUBLISH_RATE, maxRate,
+                        latencyTarget, System.out);
+            }
+            if (cmd.hasOption("dd")) {
+                dedupWindow = cmd.hasOption("dw") ? ((Number) cmd.getParsedOptionValue("dw")).intValue() : 1024;
+                // Validates the window size before connecting
+                new SequenceTracker(dedupWindow);
+                if (payloadFormat.equals("text")) {
+                    System.out.println("Warning: -dd only tracks json and binary payloads, "
+                            + "text payloads carry no source and are counted as untracked.");
+                }
+            }
+            if (cmd.hasOption("soak")) {
+                long duration = ((Number) cmd.getParsedOptionValue("soak")).longValue();
+                long interval = cmd.hasOption("si") ? ((Number) cmd.getParsedOptionValue("si")).longValue() : 10;
+                soakMonitor = new SoakMonitor(duration, interval, cmd.getOptionValue("so", "soak.csv"), System.out);
+            }
+        } catch (ParseException | IllegalArgumentException e) {
             System.err.println("Error parsing command line arguments: " + e.getMessage());
             e.printStackTrace(System.err);
             System.exit(1);
@@ -113,13 +265,137 @@ public class EventGridMqttSample {
             System.exit(1);
         }
 
-        run(clientOptions, message, isPublisher, isSubscriber);
+        if (isPublisher && !clientOptions.isValidPublishTopic()) {
+            System.err.println("Publish topic must not contain wildcards or a $share/ prefix: "
+                    + clientOptions.getTopic());
+            System.exit(1);
+        }
+
+        run(clientOptions, message, payloadFormat, isPublisher, isSubscriber, dedupWindow, soakMonitor,
+                rateController);
     }
 
-    private static void run(final MqttClientOptions clientOptions, final String message, final boolean isPublisher,
-            final boolean isSubscriber) {
+    private static void publish(final MqttAsyncClient client, final String topic, final String message,
+            final PayloadCodec codec, final PublishRateController rateController, final PrintStream outStream) {
+        final AtomicLong rejected = new AtomicLong();
+        MqttActionListener deliveryListener = new MqttActionListener() {
+
+            @Override
+            public void onSuccess(IMqttToken asyncActionToken) {
+                PublishContext context = (PublishContext) asyncActionToken.getUserContext();
+                for (int reasonCode : asyncActionToken.getReasonCodes()) {
+                    if (reasonCode >= MqttReturnCode.RETURN_CODE_UNSPECIFIED_ERROR) {
+                        onRejected(context, reasonCode);
+                        return;
+                    }
+                }
+                rateController.onAcknowledged(System.nanoTime() - context.sentAt);
+            }
+
+            @Override
+            public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+                PublishContext context = (PublishContext) asyncActionToken.getUserContext();
+                if (exception instanceof MqttException) {
+                    onRejected(context, ((MqttException) exception).getReasonCode());
+                } else {
+                    rejected.incrementAndGet();
+                    outStream.println(MessageFormat.format("Publish of message #{0,number,#} failed: {1}.",
+                            context.sequence, exception));
+                }
+            }
+
+            private void onRejected(PublishContext context, int reasonCode) {
+                // Rejected messages are not retried; the subscriber's sequence tracking reports them as missing
+                rejected.incrementAndGet();
+                outStream.println(MessageFormat.format(
+                        "Publish of message #{0,number,#} rejected with reason code {1}.", context.sequence,
+                        reasonCode));
+                if (PublishRateController.isThrottled(reasonCode)) {
+                    rateController.onRejected(reasonCode);
+                }
+            }
+        };
+
+        String source = client.getClientId();
+        // Properties are only read when the message is sent, so one instance can be shared by all messages
+        MqttProperties properties = new MqttProperties();
+        properties.setContentType(codec.getContentType());
+
+        long nextReport = System.nanoTime() + STATUS_INTERVAL_NANOS;
+        int i = 1;
+        while (isRunning) {
+            try {
+                rateController.acquire();
+                TelemetryMessage telemetry = new TelemetryMessage(source, i, System.currentTimeMillis(), message);
+                MqttMessage mqttMessage = new MqttMessage(codec.encode(telemetry));
+                mqttMessage.setQos(1);
+                mqttMessage.setProperties(properties);
+                client.publish(topic, mqttMessage, new PublishContext(i, System.nanoTime()), deliveryListener);
+                i++;
+            } catch (MqttException e) {
+                // Keep publishing; the message is retried with the same sequence number
+                if (e.getReasonCode() == MqttClientException.REASON_CODE_MAX_INFLIGHT) {
+                    rateController.onSaturated();
+                } else if (e.getReasonCode() == MqttClientException.REASON_CODE_CLIENT_NOT_CONNECTED) {
+                    if (!isRunning) {
+                        break;
+                    }
+                    outStream.println("Client is not connected, retrying in 1 second...");
+                    sleep(1000);
+                } else {
+                    e.printStackTrace(System.err);
+                    sleep(1000);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                // Keep publishing instead of ending the thread while main waits for a shutdown signal
+                e.printStackTrace(System.err);
+                sleep(1000);
+            }
+            if (System.nanoTime() - nextReport > 0) {
+                nextReport += STATUS_INTERVAL_NANOS;
+                outStream.println(MessageFormat.format(
+                        "Publishing at {0,number,#.##} msg/s, smoothed PUBACK latency {1} ms, {2} rejected.",
+                        rateController.getRate(), rateController.getSmoothedRttMillis(), rejected.get()));
+            }
+        }
+    }
+
+    private static final class PublishContext {
+
+        private final long sequence;
+        private final long sentAt;
+
+        PublishContext(long sequence, long sentAt) {
+            this.sequence = sequence;
+            this.sentAt = sentAt;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void printTracking(final Map<String, SequenceTracker> trackers, final PrintStream outStream) {
+        for (Map.Entry<String, SequenceTracker> entry : trackers.entrySet()) {
+            outStream.println(MessageFormat.format("Sequence tracking for filter {0}: {1}.", entry.getKey(),
+                    entry.getValue()));
+        }
+    }
+
+    private static void run(final MqttClientOptions clientOptions, final String message, final String payloadFormat,
+            final boolean isPublisher, final boolean isSubscriber, final int dedupWindow, final SoakMonitor soakMonitor,
+            final PublishRateController rateController) {
         final MqttClientWrapper clientWrapper = new MqttClientWrapper();
         final CountDownLatch latch = new CountDownLatch(1);
+        // Set by whichever of the shutdown hook and the end of a soak test stops the client first
+        final AtomicBoolean stopped = new AtomicBoolean();
         final PrintStream outStream = System.out;
 
         try {
@@ -127,26 +403,82 @@ public class EventGridMqttSample {
 
             MemoryPersistence persistence = new MemoryPersistence();
             MqttAsyncClient client = new MqttAsyncClient(uri, clientOptions.getClientId(), persistence);
-            client.setCallback(new DefaultMqttCallback(outStream));
+            TopicRouter router = new TopicRouter();
+            final Map<String, SequenceTracker> trackers = new LinkedHashMap<>();
+            if (isSubscriber) {
+                // Decoders are only used on the callback thread, so a single instance per format is reused
+                final PayloadCodec defaultCodec = PayloadCodec.forName(payloadFormat);
+                final Map<String, PayloadCodec> codecsByContentType = new HashMap<>();
+                for (String format : PayloadCodec.FORMATS) {
+                    PayloadCodec codec = format.equals(payloadFormat) ? defaultCodec : PayloadCodec.forName(format);
+                    codecsByContentType.put(codec.getContentType(), codec);
+                }
+                // Register routes before connecting so queued session messages are dispatched
+                int subscriptionIdentifier = 0;
+                for (String topicFilter : clientOptions.getTopics()) {
+                    // One tracker per filter. Subscription identifiers let the router hand each filter one copy of
+                    // a message, even when filters overlap and the broker sends a copy per matching subscription.
+                    final SequenceTracker tracker = dedupWindow > 0 ? new SequenceTracker(dedupWindow) : null;
+                    if (tracker != null) {
+                        trackers.put(topicFilter, tracker);
+                    }
+                    router.addRoute(topicFilter, ++subscriptionIdentifier, (topic, mqttMessage) -> {
+                        MqttProperties properties = mqttMessage.getProperties();
+                        String contentType = properties != null ? properties.getContentType() : null;
+                        PayloadCodec codec = contentType != null ? codecsByContentType.get(contentType) : null;
+                        TelemetryMessage telemetry;
+                        try {
+                            telemetry = (codec != null ? codec : defaultCodec).decode(mqttMessage.getPayload());
+                        } catch (RuntimeException e) {
+                            // Throwing from a message callback would close the connection
+                            outStream.println(MessageFormat.format(
+                                    "Received message from topic {0} [filter {1}]: {2} ({3})",
+                                    topic, topicFilter, mqttMessage, e.getMessage()));
+                            return;
+                        }
+                        String status = "";
+                        if (tracker != null) {
+                            // Without a source, publishers sharing a topic cannot be told apart
+                            if (telemetry.getSource() == null
+                                    || telemetry.getSequence() == TelemetryMessage.NO_SEQUENCE) {
+                                tracker.skip();
+                                status = " [UNTRACKED]";
+                            } else {
+                                SequenceTracker.Result result = tracker.track(telemetry.getSource(),
+                                        telemetry.getSequence(), telemetry.getTimestamp());
+                                if (result != SequenceTracker.Result.NEW) {
+                                    status = " [" + result + "]";
+                                }
+                            }
+                        }
+                        outStream.println(MessageFormat.format("Received message from topic {0} [filter {1}]: {2}{3}",
+                                topic, topicFilter, telemetry, status));
+                    });
+                }
+            }
+            client.setCallback(new DefaultMqttCallback(outStream, router));
             clientWrapper.setClient(client);
 
             MqttConnectionOptions options = new MqttConnectionOptions();
             if (clientOptions.isUseEntraID()) {
                 outStream.println("Using Azure Entra ID for authentication...");
-                DefaultAzureCredential credential = new DefaultAzureCredentialBuilder().build();
-                TokenRequestContext tokenRequestContext = new TokenRequestContext();
-                tokenRequestContext.addScopes("https://eventgrid.azure.net/.default");
-                AccessToken token = credential.getTokenSync(tokenRequestContext);
-                options.setAuthMethod("OAUTH2-JWT");
-                options.setAuthData(token.getToken().getBytes(StandardCharsets.UTF_8));
+                options.setAuthMethod(EntraIDAuthentication.AUTH_METHOD);
+                options.setAuthData(EntraIDAuthentication.acquireToken());
+                options.setSocketFactory(new TunedSSLSocketFactory((SSLSocketFactory) SSLSocketFactory.getDefault(),
+                        clientOptions));
             } else {
                 outStream.println("Using client certificate for authentication...");
                 options.setUserName(clientOptions.getUsername());
                 options.setSocketFactory(MutualTLSSocketFactory.create(clientOptions.getClientCertPath(),
-                        clientOptions.getClientCertPassword()));
+                        clientOptions.getClientCertPassword(), clientOptions));
             }
 
             options.setCleanStart(clientOptions.isCleanSession());
+            options.setKeepAliveInterval(clientOptions.getKeepAliveInterval());
+            if (clientOptions.getMaxInflight() > 0) {
+                // MQTT v5 limits outbound messages by the broker's receive maximum, so this bounds inbound ones
+                options.setReceiveMaximum(clientOptions.getMaxInflight());
+            }
 
             outStream.println(MessageFormat.format(
                     "Connecting to broker {0} as user {1} with client ID {2} [clean session {3}]",
@@ -157,50 +489,96 @@ public class EventGridMqttSample {
             IMqttToken connectToken = client.connect(options);
             connectToken.waitForCompletion();
 
+            if (soakMonitor != null) {
+                soakMonitor.setInFlightSupplier(client::getInFlightMessageCount);
+                soakMonitor.setPendingTokensSupplier(() -> client.getPendingTokens().length);
+                soakMonitor.setConnectedSupplier(client::isConnected);
+                soakMonitor.start();
+            }
+
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (!stopped.compareAndSet(false, true)) {
+                    return;
+                }
+                if (soakMonitor != null) {
+                    soakMonitor.stop();
+                }
+                isRunning = false;
                 MqttAsyncClient wrappedClient = clientWrapper.getClient();
-                if (wrappedClient != null && wrappedClient.isConnected()) {
-                    try {
+                try {
+                    if (wrappedClient != null && wrappedClient.isConnected()) {
                         outStream.println("Disconnecting from broker due to shutdown signal...");
-                        isRunning = false;
                         IMqttToken disconnectToken = wrappedClient.disconnect();
                         disconnectToken.waitForCompletion();
                         outStream.println("Disconnected from broker.");
-                    } catch (MqttException e) {
-                        e.printStackTrace(System.err);
-                    } finally {
-                        latch.countDown();
                     }
+                } catch (MqttException e) {
+                    e.printStackTrace(System.err);
+                } finally {
+                    // The totals matter most when the connection dropped during a long run
+                    printTracking(trackers, outStream);
+                    latch.countDown();
                 }
             }));
 
             final String topic = clientOptions.getTopic();
 
             if (isSubscriber) {
-                IMqttToken subscriptionToken = client.subscribe(topic, 1);
-                System.out.println("Subscribed to topic: " + topic);
-                subscriptionToken.waitForCompletion();
+                String[] topicFilters = clientOptions.getTopics().toArray(new String[0]);
+                MqttProperties connectProperties = connectToken.getResponseProperties();
+                if (connectProperties == null || connectProperties.isSubscriptionIdentifiersAvailable()) {
+                    // A SUBSCRIBE packet carries a single identifier, so each filter is subscribed separately
+                    // with the identifier its route was registered with
+                    IMqttToken[] subscriptionTokens = new IMqttToken[topicFilters.length];
+                    for (int i = 0; i < topicFilters.length; i++) {
+                        MqttProperties subscriptionProperties = new MqttProperties();
+                        subscriptionProperties.setSubscriptionIdentifier(i + 1);
+                        subscriptionTokens[i] = client.subscribe(
+                                new MqttSubscription[] { new MqttSubscription(topicFilters[i], 1) }, null, null,
+                                subscriptionProperties);
+                    }
+                    System.out.println("Subscribed to topics: " + clientOptions.getTopics());
+                    for (IMqttToken subscriptionToken : subscriptionTokens) {
+                        subscriptionToken.waitForCompletion();
+                    }
+                } else {
+                    int[] qos = new int[topicFilters.length];
+                    Arrays.fill(qos, 1);
+                    IMqttToken subscriptionToken = client.subscribe(topicFilters, qos);
+                    System.out.println("Subscribed to topics: " + clientOptions.getTopics());
+                    subscriptionToken.waitForCompletion();
+                    if (trackers.size() > 1) {
+                        System.out.println("Warning: the broker does not support subscription identifiers, "
+                                + "so copies sent for overlapping filters are tracked as duplicates.");
+                    }
+                }
                 System.out.println("Subscription complete.");
             } else if (isPublisher) {
                 System.out.println("Publishing to topic: " + topic);
-                new Thread(() -> {
-                    try {
-                        for (int i = 1; isRunning; i++) {
-                            String payload = String.format("%s #%d", message, i);
-                            MqttMessage mqttMessage = new MqttMessage(payload.getBytes(StandardCharsets.UTF_8));
-                            mqttMessage.setQos(1);
-                            IMqttToken deliveryToken = client.publish(topic, mqttMessage);
-                            deliveryToken.waitForCompletion();
-                            Thread.sleep(2000);
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace(System.err);
-                    }
-                }).start();
+                final PayloadCodec codec = PayloadCodec.forName(payloadFormat);
+                new Thread(() -> publish(client, topic, message, codec, rateController, outStream)).start();
             }
 
-            // Block execution until a Signal is received
-            latch.await();
+            if (soakMonitor != null) {
+                // Block execution until the soak test ends or a Signal is received
+                if (!latch.await(soakMonitor.getDurationSeconds(), TimeUnit.SECONDS)
+                        && stopped.compareAndSet(false, true)) {
+                    outStream.println("Soak test duration elapsed, disconnecting from broker...");
+                    isRunning = false;
+                    soakMonitor.stop();
+                    if (client.isConnected()) {
+                        client.disconnect().waitForCompletion();
+                        outStream.println("Disconnected from broker.");
+                    } else {
+                        // Automatic reconnect is not enabled, so a lost connection stays lost
+                        outStream.println("The connection to the broker was lost before the soak test ended.");
+                    }
+                    printTracking(trackers, outStream);
+                }
+            } else {
+                // Block execution until a Signal is received
+                latch.await();
+            }
         } catch (Exception ex) {
             ex.printStackTrace(System.err);
         } finally {
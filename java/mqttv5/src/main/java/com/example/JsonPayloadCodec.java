@@ -0,0 +1,300 @@
+package com.example;
+
+import java.nio.charset.StandardCharsets;
+
+// Hand-written JSON for the flat TelemetryMessage schema, avoiding reflection-based object mappers
+public class JsonPayloadCodec implements PayloadCodec {
+
+    public static final String CONTENT_TYPE = "application/json";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder builder = new StringBuilder(128);
+
+    private String input;
+    private int position;
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(TelemetryMessage message) {
+        builder.setLength(0);
+        builder.append("{\"source\":");
+        appendString(message.getSource());
+        builder.append(",\"sequence\":").append(message.getSequence());
+        builder.append(",\"timestamp\":").append(message.getTimestamp());
+        builder.append(",\"text\":");
+        appendString(message.getText());
+        builder.append('}');
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public TelemetryMessage decode(byte[] payload) {
+        input = new String(payload, StandardCharsets.UTF_8);
+        position = 0;
+        try {
+            String source = null;
+            long sequence = 0;
+            long timestamp = 0;
+            String text = null;
+
+            expect('{');
+            if (!consume('}')) {
+                do {
+                    String field = readFieldName();
+                    expect(':');
+                    switch (field) {
+                        case "source":
+                            source = readString();
+                            break;
+                        case "sequence":
+                            sequence = readLong();
+                            break;
+                        case "timestamp":
+                            timestamp = readLong();
+                            break;
+                        case "text":
+                            text = readString();
+                            break;
+                        default:
+                            skipValue();
+                    }
+                } while (consume(','));
+                expect('}');
+            }
+            skipWhitespace();
+            if (position != input.length()) {
+                throw malformed("trailing characters");
+            }
+            return new TelemetryMessage(source, sequence, timestamp, text);
+        } finally {
+            input = null;
+        }
+    }
+
+    private void appendString(String value) {
+        if (value == null) {
+            builder.append("null");
+            return;
+        }
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        builder.append('"');
+    }
+
+    private String readFieldName() {
+        skipWhitespace();
+        if (position >= input.length() || input.charAt(position) != '"') {
+            throw malformed("expected a field name");
+        }
+        return readQuoted();
+    }
+
+    private String readString() {
+        skipWhitespace();
+        if (input.startsWith("null", position)) {
+            position += 4;
+            return null;
+        }
+        return readQuoted();
+    }
+
+    private String readQuoted() {
+        expect('"');
+        builder.setLength(0);
+        while (position < input.length()) {
+            char c = input.charAt(position++);
+            if (c == '"') {
+                return builder.toString();
+            }
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (position >= input.length()) {
+                break;
+            }
+            char escaped = input.charAt(position++);
+            switch (escaped) {
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > input.length()) {
+                        throw malformed("truncated unicode escape");
+                    }
+                    try {
+                        builder.append((char) Integer.parseInt(input.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw malformed("invalid unicode escape");
+                    }
+                    position += 4;
+                    break;
+                case '"':
+                case '\\':
+                case '/':
+                    builder.append(escaped);
+                    break;
+                default:
+                    throw malformed("invalid escape");
+            }
+        }
+        throw malformed("unterminated string");
+    }
+
+    private long readLong() {
+        skipWhitespace();
+        int start = position;
+        if (position < input.length() && input.charAt(position) == '-') {
+            position++;
+        }
+        while (position < input.length() && Character.isDigit(input.charAt(position))) {
+            position++;
+        }
+        try {
+            return Long.parseLong(input.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw malformed("expected an integer");
+        }
+    }
+
+    private void skipValue() {
+        skipWhitespace();
+        if (position >= input.length()) {
+            throw malformed("missing value");
+        }
+        char c = input.charAt(position);
+        if (c == '"') {
+            readString();
+            return;
+        }
+        if (c == '{' || c == '[') {
+            // Nested values are not part of the schema; skip them by tracking depth
+            int depth = 0;
+            while (position < input.length()) {
+                c = input.charAt(position);
+                if (c == '"') {
+                    readString();
+                    continue;
+                }
+                position++;
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if ((c == '}' || c == ']') && --depth == 0) {
+                    return;
+                }
+            }
+            throw malformed("unterminated value");
+        }
+        if (input.startsWith("true", position)) {
+            position += 4;
+        } else if (input.startsWith("false", position)) {
+            position += 5;
+        } else if (input.startsWith("null", position)) {
+            position += 4;
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            skipNumber();
+        } else {
+            throw malformed("missing value");
+        }
+    }
+
+    private void skipNumber() {
+        if (input.charAt(position) == '-') {
+            position++;
+        }
+        if (!skipDigits()) {
+            throw malformed("expected a number");
+        }
+        if (position < input.length() && input.charAt(position) == '.') {
+            position++;
+            if (!skipDigits()) {
+                throw malformed("expected a fraction");
+            }
+        }
+        if (position < input.length() && (input.charAt(position) == 'e' || input.charAt(position) == 'E')) {
+            position++;
+            if (position < input.length() && (input.charAt(position) == '+' || input.charAt(position) == '-')) {
+                position++;
+            }
+            if (!skipDigits()) {
+                throw malformed("expected an exponent");
+            }
+        }
+    }
+
+    private boolean skipDigits() {
+        int start = position;
+        while (position < input.length() && input.charAt(position) >= '0' && input.charAt(position) <= '9') {
+            position++;
+        }
+        return position > start;
+    }
+
+    private boolean consume(char c) {
+        skipWhitespace();
+        if (position < input.length() && input.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) {
+            throw malformed("expected '" + c + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException malformed(String reason) {
+        return new IllegalArgumentException("Malformed JSON payload at offset " + position + ": " + reason);
+    }
+
+}
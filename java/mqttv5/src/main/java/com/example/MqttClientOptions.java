@@ -1,5 +1,8 @@
 package com.example;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class MqttClientOptions {
 
     private String broker;
@@ -7,11 +10,17 @@ public class MqttClientOptions {
     private String clientId;
     private String username;
     private String password;
-    private String topic;
+    private final List<String> topics = new ArrayList<>();
     private boolean cleanSession;
     private String clientCertPath;
     private String clientCertPassword;
     private boolean useEntraID;
+    private int keepAliveInterval;
+    private int maxInflight;
+    private boolean tcpNoDelay;
+    private boolean tcpKeepAlive;
+    private int sendBufferSize;
+    private int receiveBufferSize;
 
     public String getBroker() {
         return broker;
@@ -54,11 +63,18 @@ public class MqttClientOptions {
     }
 
     public String getTopic() {
-        return topic;
+        return topics.isEmpty() ? null : topics.get(0);
+    }
+
+    public List<String> getTopics() {
+        return topics;
     }
 
-    public void setTopic(String topic) {
-        this.topic = topic;
+    // Repeated filters are ignored, as each one would deliver every message again
+    public void addTopic(String topic) {
+        if (!topics.contains(topic)) {
+            topics.add(topic);
+        }
     }
 
     public boolean isCleanSession() {
@@ -93,11 +109,67 @@ public class MqttClientOptions {
         this.useEntraID = useEntraID;
     }
 
+    public int getKeepAliveInterval() {
+        return keepAliveInterval;
+    }
+
+    public void setKeepAliveInterval(int keepAliveInterval) {
+        this.keepAliveInterval = keepAliveInterval;
+    }
+
+    public int getMaxInflight() {
+        return maxInflight;
+    }
+
+    public void setMaxInflight(int maxInflight) {
+        this.maxInflight = maxInflight;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public boolean isTcpKeepAlive() {
+        return tcpKeepAlive;
+    }
+
+    public void setTcpKeepAlive(boolean tcpKeepAlive) {
+        this.tcpKeepAlive = tcpKeepAlive;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public boolean isValidPublishTopic() {
+        String topic = getTopic();
+        return topic != null &&
+                topic.indexOf('+') < 0 &&
+                topic.indexOf('#') < 0 &&
+                !topic.startsWith("$share/");
+    }
+
     public boolean validate() {
         boolean isValid = broker != null &&
                 clientId != null &&
                 username != null &&
-                topic != null;
+                !topics.isEmpty();
         if (!useEntraID) {
             isValid = isValid &&
                     clientCertPath != null &&
@@ -34,5 +34,10 @@ public final class MutualTLSSocketFactory {
             throw new RuntimeException("Failed to create socket factory", e);
         }
     }
+
+    public static SSLSocketFactory create(String clientCertPath, String clientCertPassword,
+            MqttClientOptions clientOptions) {
+        return new TunedSSLSocketFactory(create(clientCertPath, clientCertPassword), clientOptions);
+    }
     
 }
@@ -0,0 +1,32 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// Codec instances keep reusable scratch buffers and must not be shared between threads
+public interface PayloadCodec {
+
+    List<String> FORMATS = Collections.unmodifiableList(Arrays.asList("text", "json", "binary"));
+
+    String getContentType();
+
+    byte[] encode(TelemetryMessage message);
+
+    TelemetryMessage decode(byte[] payload);
+
+    static PayloadCodec forName(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "text":
+                return new TextPayloadCodec();
+            case "json":
+                return new JsonPayloadCodec();
+            case "binary":
+                return new BinaryPayloadCodec();
+            default:
+                throw new IllegalArgumentException("Unknown payload format: " + name);
+        }
+    }
+
+}
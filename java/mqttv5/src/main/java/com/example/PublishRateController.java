@@ -0,0 +1,121 @@
+package com.example;
+
+import java.io.PrintStream;
+import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.paho.mqttv5.common.packet.MqttReturnCode;
+
+public class PublishRateController {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    // Weight of the latest sample in the smoothed round-trip time, as in TCP's SRTT
+    private static final double RTT_ALPHA = 0.125;
+    private static final double INCREASE_STEP = 1.0;
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final long MIN_DECREASE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final double minRate;
+    private final double maxRate;
+    private final long latencyTargetNanos;
+    private final PrintStream stream;
+
+    private double rate;
+    private double smoothedRttNanos = -1;
+    private long nextSendNanos;
+    private long lastDecreaseNanos;
+    private boolean slowStart = true;
+
+    public PublishRateController(double initialRate, double minRate, double maxRate, long latencyTargetMillis,
+            PrintStream stream) {
+        if (minRate <= 0 || maxRate < minRate) {
+            throw new IllegalArgumentException("Rate limits must satisfy 0 < minRate <= maxRate");
+        }
+        if (initialRate < minRate || initialRate > maxRate) {
+            throw new IllegalArgumentException("Initial rate must be between minRate and maxRate");
+        }
+        if (latencyTargetMillis <= 0) {
+            throw new IllegalArgumentException("Latency target must be positive");
+        }
+        if (stream == null) {
+            throw new IllegalArgumentException("PrintStream cannot be null");
+        }
+        this.rate = initialRate;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis);
+        this.stream = stream;
+        this.nextSendNanos = System.nanoTime();
+        this.lastDecreaseNanos = nextSendNanos - NANOS_PER_SECOND;
+    }
+
+    public static PublishRateController fixed(double rate, PrintStream stream) {
+        return new PublishRateController(rate, rate, rate, Long.MAX_VALUE / 1000000, stream);
+    }
+
+    public void acquire() throws InterruptedException {
+        long delay;
+        synchronized (this) {
+            long now = System.nanoTime();
+            // Do not let a stalled sender catch up with a burst
+            if (now - nextSendNanos > NANOS_PER_SECOND) {
+                nextSendNanos = now;
+            }
+            delay = nextSendNanos - now;
+            nextSendNanos += (long) (NANOS_PER_SECOND / rate);
+        }
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+    }
+
+    public synchronized void onAcknowledged(long rttNanos) {
+        smoothedRttNanos = smoothedRttNanos < 0 ? rttNanos
+                : (1 - RTT_ALPHA) * smoothedRttNanos + RTT_ALPHA * rttNanos;
+        if (smoothedRttNanos > latencyTargetNanos) {
+            decrease("PUBACK latency above target");
+        } else if (slowStart) {
+            // Double the rate every second until the first congestion signal
+            rate = Math.min(maxRate, rate + INCREASE_STEP);
+        } else {
+            // Additive increase of roughly INCREASE_STEP messages per second, every second
+            rate = Math.min(maxRate, rate + INCREASE_STEP / rate);
+        }
+    }
+
+    public synchronized void onRejected(int reasonCode) {
+        decrease(MessageFormat.format("broker returned reason code 0x{0}", Integer.toHexString(reasonCode)));
+    }
+
+    public synchronized void onSaturated() {
+        decrease("in-flight window is full");
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    public synchronized long getSmoothedRttMillis() {
+        return smoothedRttNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis((long) smoothedRttNanos);
+    }
+
+    public static boolean isThrottled(int reasonCode) {
+        return reasonCode == MqttReturnCode.RETURN_CODE_QUOTA_EXCEEDED
+                || reasonCode == MqttReturnCode.RETURN_CODE_MESSAGE_RATE_TOO_HIGH
+                || reasonCode == MqttReturnCode.RETURN_CODE_SERVER_BUSY;
+    }
+
+    private void decrease(String cause) {
+        long now = System.nanoTime();
+        // Back off at most once per round trip so a burst of slow acknowledgements counts as one signal
+        long interval = Math.max(MIN_DECREASE_INTERVAL_NANOS, (long) smoothedRttNanos);
+        if (rate <= minRate || now - lastDecreaseNanos < interval) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        slowStart = false;
+        rate = Math.max(minRate, rate * DECREASE_FACTOR);
+        stream.println(MessageFormat.format("Reducing publish rate to {0,number,#.##} msg/s: {1}.", rate, cause));
+    }
+
+}
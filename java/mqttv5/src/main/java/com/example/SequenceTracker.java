@@ -0,0 +1,157 @@
+package com.example;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Tracks the sequence numbers seen per source in a sliding bitset window. Sources are mapped to
+// int IDs once, and their state lives in flat primitive arrays, so memory stays at a few hundred
+// bytes per source regardless of how many messages were received.
+public class SequenceTracker {
+
+    public enum Result {
+        NEW, DUPLICATE, REORDERED, TOO_OLD
+    }
+
+    private static final int INITIAL_SOURCES = 16;
+
+    private final int windowSize;
+    private final int wordsPerSource;
+    private final Map<String, Integer> sourceIds = new HashMap<>();
+
+    private long[] first = new long[INITIAL_SOURCES];
+    private long[] highest = new long[INITIAL_SOURCES];
+    private long[] highestTimestamp = new long[INITIAL_SOURCES];
+    private long[] window;
+    private int sourceCount;
+
+    private long received;
+    private long duplicates;
+    private long reordered;
+    private long gaps;
+    private long filled;
+    private long tooOld;
+    private long restarts;
+    private long untracked;
+
+    public SequenceTracker(int windowSize) {
+        if (windowSize <= 0 || windowSize % Long.SIZE != 0) {
+            throw new IllegalArgumentException("Window size must be a positive multiple of " + Long.SIZE);
+        }
+        this.windowSize = windowSize;
+        this.wordsPerSource = windowSize / Long.SIZE;
+        this.window = new long[INITIAL_SOURCES * wordsPerSource];
+    }
+
+    // Timestamps are the publisher's send times; 0 means the payload carries none
+    public synchronized Result track(String source, long sequence, long timestamp) {
+        received++;
+        Integer id = sourceIds.get(source);
+        if (id == null) {
+            register(source, sequence, timestamp);
+            return Result.NEW;
+        }
+        int sourceId = id;
+        long top = highest[sourceId];
+        if (sequence > top) {
+            advance(sourceId, top, sequence);
+            highestTimestamp[sourceId] = timestamp;
+            gaps += sequence - top - 1;
+            return Result.NEW;
+        }
+        // Redeliveries repeat the original send time and reordered messages were sent before the highest
+        // one, so an older sequence number with a newer send time means the publisher restarted
+        if (timestamp > highestTimestamp[sourceId] || (sequence <= top - windowSize && sequence == 1)) {
+            restarts++;
+            clear(sourceId);
+            first[sourceId] = sequence;
+            highest[sourceId] = sequence;
+            highestTimestamp[sourceId] = timestamp;
+            set(sourceId, sequence);
+            return Result.NEW;
+        }
+        if (sequence <= top - windowSize) {
+            tooOld++;
+            return Result.TOO_OLD;
+        }
+        if (isSet(sourceId, sequence)) {
+            duplicates++;
+            return Result.DUPLICATE;
+        }
+        set(sourceId, sequence);
+        reordered++;
+        if (sequence > first[sourceId]) {
+            // Fills a gap that was counted when it opened
+            filled++;
+        } else {
+            first[sourceId] = sequence;
+        }
+        return Result.REORDERED;
+    }
+
+    // Counts a message that carries no source or sequence number to track
+    public synchronized void skip() {
+        untracked++;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MessageFormat.format("{0} received from {1} sources, {2} duplicates, {3} reordered, {4} missing, "
+                + "{5} too old, {6} restarts, {7} untracked", received, sourceCount, duplicates, reordered,
+                gaps - filled, tooOld, restarts, untracked);
+    }
+
+    private void register(String source, long sequence, long timestamp) {
+        if (sourceCount == highest.length) {
+            first = Arrays.copyOf(first, sourceCount * 2);
+            highest = Arrays.copyOf(highest, sourceCount * 2);
+            highestTimestamp = Arrays.copyOf(highestTimestamp, sourceCount * 2);
+            window = Arrays.copyOf(window, sourceCount * 2 * wordsPerSource);
+        }
+        int sourceId = sourceCount++;
+        sourceIds.put(source, sourceId);
+        first[sourceId] = sequence;
+        highest[sourceId] = sequence;
+        highestTimestamp[sourceId] = timestamp;
+        set(sourceId, sequence);
+    }
+
+    private void advance(int sourceId, long top, long sequence) {
+        if (sequence - top >= windowSize) {
+            clear(sourceId);
+        } else {
+            // Slots of sequence numbers that slide into the window still hold bits from one window ago
+            for (long s = top + 1; s < sequence; s++) {
+                int bit = bitIndex(s);
+                window[wordIndex(sourceId, bit)] &= ~(1L << bit);
+            }
+        }
+        highest[sourceId] = sequence;
+        set(sourceId, sequence);
+    }
+
+    private void clear(int sourceId) {
+        int offset = sourceId * wordsPerSource;
+        Arrays.fill(window, offset, offset + wordsPerSource, 0L);
+    }
+
+    private boolean isSet(int sourceId, long sequence) {
+        int bit = bitIndex(sequence);
+        return (window[wordIndex(sourceId, bit)] & (1L << bit)) != 0;
+    }
+
+    private void set(int sourceId, long sequence) {
+        int bit = bitIndex(sequence);
+        window[wordIndex(sourceId, bit)] |= 1L << bit;
+    }
+
+    private int bitIndex(long sequence) {
+        return (int) Math.floorMod(sequence, (long) windowSize);
+    }
+
+    private int wordIndex(int sourceId, int bit) {
+        return sourceId * wordsPerSource + (bit >>> 6);
+    }
+
+}
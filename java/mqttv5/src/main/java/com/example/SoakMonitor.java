@@ -0,0 +1,289 @@
+package com.example;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+public class SoakMonitor {
+
+    private static final String[] COLUMNS = {
+            "timestamp", "uptimeMs", "heapUsedBytes", "heapCommittedBytes", "nonHeapUsedBytes", "gcCount",
+            "gcTimeMs", "allocationRateBytesPerSec", "threadCount", "inFlightMessages", "pendingTokens", "connected"
+    };
+    // Windows used when checking a series for monotonic growth
+    private static final int GROWTH_WINDOWS = 4;
+
+    private final long durationSeconds;
+    private final long intervalSeconds;
+    private final String outputPath;
+    private final PrintStream stream;
+    private final boolean json;
+
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    // Only the per-window minimums are retained so the monitor itself does not grow over long runs
+    private final long[][] windowMinimums = new long[GROWTH_WINDOWS][COLUMNS.length];
+    private final long samplesPerWindow;
+    private long sampleCount;
+    private long[] firstSample;
+    private long[] lastSample;
+    private ScheduledExecutorService scheduler;
+    private PrintWriter writer;
+    private IntSupplier inFlightSupplier = () -> -1;
+    private IntSupplier pendingTokensSupplier = () -> -1;
+    private BooleanSupplier connectedSupplier;
+    private boolean wasConnected = true;
+    private long connectionLosses;
+
+    private long lastGcCount;
+    private long lastGcTime;
+    private long lastAllocatedBytes = -1;
+    private long lastSampleNanos;
+
+    public SoakMonitor(long durationSeconds, long intervalSeconds, String outputPath, PrintStream stream) {
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("Soak duration must be positive");
+        }
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("Sampling interval must be positive");
+        }
+        if (outputPath == null) {
+            throw new IllegalArgumentException("Output path cannot be null");
+        }
+        if (stream == null) {
+            throw new IllegalArgumentException("PrintStream cannot be null");
+        }
+        this.durationSeconds = durationSeconds;
+        this.intervalSeconds = intervalSeconds;
+        this.outputPath = outputPath;
+        this.stream = stream;
+        this.json = outputPath.toLowerCase(Locale.ROOT).endsWith(".json");
+        this.samplesPerWindow = Math.max(1, (durationSeconds / intervalSeconds + 1) / GROWTH_WINDOWS);
+        for (long[] minimums : windowMinimums) {
+            Arrays.fill(minimums, Long.MAX_VALUE);
+        }
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setInFlightSupplier(IntSupplier inFlightSupplier) {
+        this.inFlightSupplier = inFlightSupplier;
+    }
+
+    public void setPendingTokensSupplier(IntSupplier pendingTokensSupplier) {
+        this.pendingTokensSupplier = pendingTokensSupplier;
+    }
+
+    public void setConnectedSupplier(BooleanSupplier connectedSupplier) {
+        this.connectedSupplier = connectedSupplier;
+    }
+
+    public synchronized void start() throws IOException {
+        writer = new PrintWriter(new FileWriter(outputPath, false));
+        if (!json) {
+            writer.println(String.join(",", COLUMNS));
+            writer.flush();
+        }
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            lastGcCount += Math.max(0, gcBean.getCollectionCount());
+            lastGcTime += Math.max(0, gcBean.getCollectionTime());
+        }
+        lastAllocatedBytes = totalAllocatedBytes();
+        lastSampleNanos = System.nanoTime();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "soak-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::sample, 0, intervalSeconds, TimeUnit.SECONDS);
+        stream.println(MessageFormat.format("Soak test started for {0}s, sampling every {1}s to {2}",
+                durationSeconds, intervalSeconds, outputPath));
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+        sample();
+        writer.close();
+        reportGrowth();
+    }
+
+    private synchronized void sample() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            long gcCount = 0;
+            long gcTime = 0;
+            for (GarbageCollectorMXBean gcBean : gcBeans) {
+                gcCount += Math.max(0, gcBean.getCollectionCount());
+                gcTime += Math.max(0, gcBean.getCollectionTime());
+            }
+            long allocatedBytes = totalAllocatedBytes();
+            long allocationRate = 0;
+            if (allocatedBytes >= 0 && lastAllocatedBytes >= 0 && now > lastSampleNanos) {
+                // Bytes of terminated threads drop out of the total, so clamp negative deltas
+                long delta = Math.max(0, allocatedBytes - lastAllocatedBytes);
+                allocationRate = delta * TimeUnit.SECONDS.toNanos(1) / (now - lastSampleNanos);
+            }
+            long connected = -1;
+            if (connectedSupplier != null) {
+                boolean isConnected = connectedSupplier.getAsBoolean();
+                connected = isConnected ? 1 : 0;
+                if (wasConnected && !isConnected) {
+                    connectionLosses++;
+                    stream.println("Soak test: the connection to the broker was lost, samples no longer reflect "
+                            + "an active client.");
+                } else if (!wasConnected && isConnected) {
+                    stream.println("Soak test: the connection to the broker was restored.");
+                }
+                wasConnected = isConnected;
+            }
+            long[] sample = {
+                    System.currentTimeMillis(),
+                    ManagementFactory.getRuntimeMXBean().getUptime(),
+                    memoryBean.getHeapMemoryUsage().getUsed(),
+                    memoryBean.getHeapMemoryUsage().getCommitted(),
+                    memoryBean.getNonHeapMemoryUsage().getUsed(),
+                    gcCount - lastGcCount,
+                    gcTime - lastGcTime,
+                    allocationRate,
+                    threadBean.getThreadCount(),
+                    inFlightSupplier.getAsInt(),
+                    pendingTokensSupplier.getAsInt(),
+                    connected
+            };
+            lastGcCount = gcCount;
+            lastGcTime = gcTime;
+            lastAllocatedBytes = allocatedBytes;
+            lastSampleNanos = now;
+            record(sample);
+            write(sample);
+        } catch (RuntimeException e) {
+            // Keep sampling; a single failed sample must not cancel the scheduled task
+            e.printStackTrace(System.err);
+        }
+    }
+
+    private void record(long[] sample) {
+        if (firstSample == null) {
+            firstSample = sample;
+        }
+        lastSample = sample;
+        int window = (int) Math.min(sampleCount / samplesPerWindow, GROWTH_WINDOWS - 1);
+        for (int i = 0; i < sample.length; i++) {
+            windowMinimums[window][i] = Math.min(windowMinimums[window][i], sample[i]);
+        }
+        sampleCount++;
+    }
+
+    private long totalAllocatedBytes() {
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!sunThreadBean.isThreadAllocatedMemorySupported() || !sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long allocated : sunThreadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+    private void write(long[] sample) {
+        StringBuilder line = new StringBuilder();
+        if (json) {
+            line.append('{');
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                line.append('"').append(COLUMNS[i]).append("\":").append(sample[i]);
+            }
+            line.append('}');
+        } else {
+            for (int i = 0; i < sample.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                line.append(sample[i]);
+            }
+        }
+        writer.println(line);
+        writer.flush();
+    }
+
+    private void reportGrowth() {
+        boolean growth = false;
+        for (String column : new String[] { "heapUsedBytes", "nonHeapUsedBytes", "threadCount",
+                "inFlightMessages", "pendingTokens" }) {
+            int index = indexOf(column);
+            if (isMonotonicGrowth(index)) {
+                growth = true;
+                stream.println(MessageFormat.format("WARNING: {0} grew monotonically during the soak test ({1} -> {2})",
+                        column, String.valueOf(firstSample[index]), String.valueOf(lastSample[index])));
+            }
+        }
+        if (!growth) {
+            stream.println(MessageFormat.format("Soak test complete, {0} samples, no monotonic growth detected.",
+                    String.valueOf(sampleCount)));
+        }
+        if (connectionLosses > 0) {
+            stream.println(MessageFormat.format("WARNING: the connection to the broker was lost {0} time(s) "
+                    + "during the soak test.", String.valueOf(connectionLosses)));
+        }
+    }
+
+    // A series grows monotonically when the minimum of every window exceeds the previous one.
+    // Using window minimums ignores short-lived peaks, e.g. heap usage right before a collection.
+    private boolean isMonotonicGrowth(int index) {
+        if (sampleCount < GROWTH_WINDOWS * 2) {
+            return false;
+        }
+        long previousMin = Long.MIN_VALUE;
+        for (long[] minimums : windowMinimums) {
+            long min = minimums[index];
+            if (min < 0 || min == Long.MAX_VALUE || min <= previousMin) {
+                return false;
+            }
+            previousMin = min;
+        }
+        return true;
+    }
+
+    private static int indexOf(String column) {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (COLUMNS[i].equals(column)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column: " + column);
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.example;
+
+import java.text.MessageFormat;
+
+public final class TelemetryMessage {
+
+    // Publishers number their messages from 1
+    public static final long NO_SEQUENCE = 0;
+
+    private final String source;
+    private final long sequence;
+    private final long timestamp;
+    private final String text;
+
+    public TelemetryMessage(String source, long sequence, long timestamp, String text) {
+        this.source = source;
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.text = text;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    // Omits the fields that payload formats such as plain text do not carry
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(text);
+        if (sequence != NO_SEQUENCE) {
+            builder.append(" #").append(sequence);
+        }
+        if (source != null && timestamp != 0) {
+            builder.append(MessageFormat.format(" [source {0}, timestamp {1,number,#}]", source, timestamp));
+        } else if (source != null) {
+            builder.append(MessageFormat.format(" [source {0}]", source));
+        } else if (timestamp != 0) {
+            builder.append(MessageFormat.format(" [timestamp {0,number,#}]", timestamp));
+        }
+        return builder.toString();
+    }
+
+}
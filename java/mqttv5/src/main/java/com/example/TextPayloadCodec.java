@@ -0,0 +1,39 @@
+package com.example;
+
+import java.nio.charset.StandardCharsets;
+
+// Plain "<text> #<sequence>" payloads as sent by earlier versions of this sample
+public class TextPayloadCodec implements PayloadCodec {
+
+    public static final String CONTENT_TYPE = "text/plain";
+
+    private final StringBuilder builder = new StringBuilder(64);
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(TelemetryMessage message) {
+        builder.setLength(0);
+        builder.append(message.getText()).append(" #").append(message.getSequence());
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public TelemetryMessage decode(byte[] payload) {
+        String text = new String(payload, StandardCharsets.UTF_8);
+        int separator = text.lastIndexOf(" #");
+        if (separator >= 0) {
+            try {
+                long sequence = Long.parseLong(text.substring(separator + 2));
+                return new TelemetryMessage(null, sequence, 0, text.substring(0, separator));
+            } catch (NumberFormatException e) {
+                // Not a sequenced payload, keep the whole text
+            }
+        }
+        return new TelemetryMessage(null, TelemetryMessage.NO_SEQUENCE, 0, text);
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.paho.mqttv5.client.IMqttMessageListener;
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
+
+public class TopicRouter {
+
+    private static final String SHARED_PREFIX = "$share/";
+    private static final IMqttMessageListener[] NO_LISTENERS = new IMqttMessageListener[0];
+    private static final int MAX_SUBSCRIPTION_IDENTIFIER = 268435455;
+
+    private final Node root = new Node();
+    private final Map<Integer, IMqttMessageListener> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, IMqttMessageListener[]> cache = new ConcurrentHashMap<>();
+    private final int maxCacheSize;
+
+    public TopicRouter() {
+        this(10000);
+    }
+
+    public TopicRouter(int maxCacheSize) {
+        if (maxCacheSize < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    public void addRoute(String topicFilter, IMqttMessageListener listener) {
+        addRoute(topicFilter, 0, listener);
+    }
+
+    // A subscription identifier of 0 registers the route for topic matching only
+    public synchronized void addRoute(String topicFilter, int subscriptionIdentifier, IMqttMessageListener listener) {
+        if (topicFilter == null || topicFilter.isEmpty()) {
+            throw new IllegalArgumentException("Topic filter cannot be null or empty");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        if (subscriptionIdentifier < 0 || subscriptionIdentifier > MAX_SUBSCRIPTION_IDENTIFIER) {
+            throw new IllegalArgumentException("Subscription identifier out of range: " + subscriptionIdentifier);
+        }
+        if (subscriptions.containsKey(subscriptionIdentifier)) {
+            throw new IllegalArgumentException("Subscription identifier already in use: " + subscriptionIdentifier);
+        }
+        Node node = root;
+        String[] levels = split(stripSharePrefix(topicFilter));
+        for (int i = 0; i < levels.length; i++) {
+            String level = levels[i];
+            if (level.equals("#") && i != levels.length - 1) {
+                throw new IllegalArgumentException("Multi-level wildcard must be the last level: " + topicFilter);
+            }
+            if ((level.indexOf('#') >= 0 || level.indexOf('+') >= 0) && level.length() > 1) {
+                throw new IllegalArgumentException("Wildcards must occupy an entire level: " + topicFilter);
+            }
+            node = node.child(level);
+        }
+        node.addListener(listener);
+        if (subscriptionIdentifier > 0) {
+            subscriptions.put(subscriptionIdentifier, listener);
+        }
+        // Previously resolved topics may now match the new filter
+        cache.clear();
+    }
+
+    public boolean route(String topic, MqttMessage message) throws Exception {
+        IMqttMessageListener[] listeners = resolve(topic, message.getProperties());
+        for (IMqttMessageListener listener : listeners) {
+            listener.messageArrived(topic, message);
+        }
+        return listeners.length > 0;
+    }
+
+    // A broker may send one copy of a message per matching subscription. Each copy carries the identifiers of
+    // the subscriptions it was sent for, so routing by identifier hands every filter exactly one copy even when
+    // filters overlap. Messages without known identifiers fall back to topic matching.
+    public IMqttMessageListener[] resolve(String topic, MqttProperties properties) {
+        List<Integer> identifiers = properties != null ? properties.getSubscriptionIdentifiers() : null;
+        if (identifiers != null && !identifiers.isEmpty()) {
+            List<IMqttMessageListener> matches = new ArrayList<>(identifiers.size());
+            for (Integer identifier : identifiers) {
+                IMqttMessageListener listener = subscriptions.get(identifier);
+                if (listener != null) {
+                    matches.add(listener);
+                }
+            }
+            if (!matches.isEmpty()) {
+                return matches.toArray(NO_LISTENERS);
+            }
+        }
+        return resolve(topic);
+    }
+
+    public IMqttMessageListener[] resolve(String topic) {
+        IMqttMessageListener[] listeners = cache.get(topic);
+        if (listeners != null) {
+            return listeners;
+        }
+        List<IMqttMessageListener> matches = new ArrayList<>();
+        String[] levels = split(topic);
+        // Wildcards at the first level never match topics beginning with '$'
+        match(root, levels, 0, !topic.startsWith("$"), matches);
+        listeners = matches.isEmpty() ? NO_LISTENERS : matches.toArray(NO_LISTENERS);
+        if (maxCacheSize > 0) {
+            if (cache.size() >= maxCacheSize) {
+                cache.clear();
+            }
+            cache.put(topic, listeners);
+        }
+        return listeners;
+    }
+
+    private static void match(Node node, String[] levels, int index, boolean wildcards,
+            List<IMqttMessageListener> matches) {
+        if (wildcards) {
+            // '#' also matches the parent level, e.g. "a/#" matches "a"
+            Node multi = node.children.get("#");
+            if (multi != null) {
+                multi.collect(matches);
+            }
+        }
+        if (index == levels.length) {
+            node.collect(matches);
+            return;
+        }
+        Node exact = node.children.get(levels[index]);
+        if (exact != null) {
+            match(exact, levels, index + 1, true, matches);
+        }
+        if (wildcards) {
+            Node single = node.children.get("+");
+            if (single != null) {
+                match(single, levels, index + 1, true, matches);
+            }
+        }
+    }
+
+    private static String stripSharePrefix(String topicFilter) {
+        if (topicFilter.startsWith(SHARED_PREFIX)) {
+            int end = topicFilter.indexOf('/', SHARED_PREFIX.length());
+            if (end < 0) {
+                throw new IllegalArgumentException("Shared subscription is missing a topic filter: " + topicFilter);
+            }
+            return topicFilter.substring(end + 1);
+        }
+        return topicFilter;
+    }
+
+    private static String[] split(String topic) {
+        int count = 1;
+        for (int i = 0; i < topic.length(); i++) {
+            if (topic.charAt(i) == '/') {
+                count++;
+            }
+        }
+        String[] levels = new String[count];
+        int start = 0;
+        for (int i = 0; i < count - 1; i++) {
+            int end = topic.indexOf('/', start);
+            levels[i] = topic.substring(start, end);
+            start = end + 1;
+        }
+        levels[count - 1] = topic.substring(start);
+        return levels;
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new ConcurrentHashMap<>();
+        private volatile IMqttMessageListener[] listeners = NO_LISTENERS;
+
+        Node child(String level) {
+            return children.computeIfAbsent(level, key -> new Node());
+        }
+
+        void addListener(IMqttMessageListener listener) {
+            IMqttMessageListener[] current = listeners;
+            IMqttMessageListener[] updated = new IMqttMessageListener[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = listener;
+            listeners = updated;
+        }
+
+        void collect(List<IMqttMessageListener> matches) {
+            for (IMqttMessageListener listener : listeners) {
+                matches.add(listener);
+            }
+        }
+    }
+
+}
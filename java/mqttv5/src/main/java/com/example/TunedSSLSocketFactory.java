@@ -0,0 +1,82 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import javax.net.ssl.SSLSocketFactory;
+
+public class TunedSSLSocketFactory extends SSLSocketFactory {
+
+    private final SSLSocketFactory delegate;
+    private final boolean tcpNoDelay;
+    private final boolean tcpKeepAlive;
+    private final int sendBufferSize;
+    private final int receiveBufferSize;
+
+    public TunedSSLSocketFactory(SSLSocketFactory delegate, MqttClientOptions clientOptions) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("SSLSocketFactory cannot be null");
+        }
+        this.delegate = delegate;
+        this.tcpNoDelay = clientOptions.isTcpNoDelay();
+        this.tcpKeepAlive = clientOptions.isTcpKeepAlive();
+        this.sendBufferSize = clientOptions.getSendBufferSize();
+        this.receiveBufferSize = clientOptions.getReceiveBufferSize();
+    }
+
+    @Override
+    public String[] getDefaultCipherSuites() {
+        return delegate.getDefaultCipherSuites();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return delegate.getSupportedCipherSuites();
+    }
+
+    // Paho creates unconnected sockets, which lets the receive buffer size take part in TCP window scaling
+    @Override
+    public Socket createSocket() throws IOException {
+        return tune(delegate.createSocket());
+    }
+
+    @Override
+    public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+        return tune(delegate.createSocket(socket, host, port, autoClose));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        return tune(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        return tune(delegate.createSocket(host, port, localHost, localPort));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        return tune(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+            throws IOException {
+        return tune(delegate.createSocket(address, port, localAddress, localPort));
+    }
+
+    private Socket tune(Socket socket) throws IOException {
+        socket.setTcpNoDelay(tcpNoDelay);
+        socket.setKeepAlive(tcpKeepAlive);
+        if (sendBufferSize > 0) {
+            socket.setSendBufferSize(sendBufferSize);
+        }
+        if (receiveBufferSize > 0) {
+            socket.setReceiveBufferSize(receiveBufferSize);
+        }
+        return socket;
+    }
+
+}
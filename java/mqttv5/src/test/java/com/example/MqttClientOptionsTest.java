@@ -0,0 +1,40 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class MqttClientOptionsTest {
+
+    private static MqttClientOptions withTopics(String... topics) {
+        MqttClientOptions options = new MqttClientOptions();
+        for (String topic : topics) {
+            options.addTopic(topic);
+        }
+        return options;
+    }
+
+    @Test
+    public void publishesToFirstTopic() {
+        assertEquals("a/b", withTopics("a/b", "c/#").getTopic());
+        assertTrue(withTopics("a/b", "c/#").isValidPublishTopic());
+    }
+
+    @Test
+    public void rejectsWildcardsAndSharedSubscriptionsAsPublishTopic() {
+        assertFalse(withTopics().isValidPublishTopic());
+        assertFalse(withTopics("a/+").isValidPublishTopic());
+        assertFalse(withTopics("a/#").isValidPublishTopic());
+        assertFalse(withTopics("$share/group/a").isValidPublishTopic());
+    }
+
+    @Test
+    public void ignoresRepeatedTopics() {
+        assertEquals(Arrays.asList("a", "b"), withTopics("a", "b", "a").getTopics());
+    }
+
+}
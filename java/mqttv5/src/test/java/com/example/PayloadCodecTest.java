@@ -0,0 +1,157 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PayloadCodecTest {
+
+    private static final String TEXT = "quote \" backslash \\ slash / tab \t newline \n bell \u0007 "
+            + "accent \u00e9 euro \u20ac emoji \ud83d\ude00";
+
+    private static void assertMessage(TelemetryMessage expected, TelemetryMessage actual) {
+        assertEquals(expected.getSource(), actual.getSource());
+        assertEquals(expected.getSequence(), actual.getSequence());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getText(), actual.getText());
+    }
+
+    private static void assertRoundTrip(PayloadCodec codec, TelemetryMessage message) {
+        assertMessage(message, codec.decode(codec.encode(message)));
+    }
+
+    private static TelemetryMessage decodeJson(String payload) {
+        return new JsonPayloadCodec().decode(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertMalformedJson(String payload) {
+        try {
+            decodeJson(payload);
+            fail("Expected " + payload + " to be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void forNameReturnsCodecForEveryFormat() {
+        assertEquals(TextPayloadCodec.CONTENT_TYPE, PayloadCodec.forName("text").getContentType());
+        assertEquals(JsonPayloadCodec.CONTENT_TYPE, PayloadCodec.forName("JSON").getContentType());
+        assertEquals(BinaryPayloadCodec.CONTENT_TYPE, PayloadCodec.forName("binary").getContentType());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void forNameRejectsUnknownFormat() {
+        PayloadCodec.forName("xml");
+    }
+
+    @Test
+    public void jsonRoundTrip() {
+        PayloadCodec codec = new JsonPayloadCodec();
+        assertRoundTrip(codec, new TelemetryMessage("client-1", 42, 1700000000000L, TEXT));
+        assertRoundTrip(codec, new TelemetryMessage(null, Long.MAX_VALUE, -1, null));
+        assertRoundTrip(codec, new TelemetryMessage("", Long.MIN_VALUE, 0, ""));
+    }
+
+    @Test
+    public void binaryRoundTrip() {
+        PayloadCodec codec = new BinaryPayloadCodec();
+        assertRoundTrip(codec, new TelemetryMessage("client-1", 42, 1700000000000L, TEXT));
+        assertRoundTrip(codec, new TelemetryMessage(null, Long.MAX_VALUE, -1, null));
+        assertRoundTrip(codec, new TelemetryMessage("", Long.MIN_VALUE, 0, ""));
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longText.append(TEXT);
+        }
+        assertRoundTrip(codec, new TelemetryMessage("client-1", 1, 1, longText.toString()));
+    }
+
+    @Test
+    public void codecsCanBeReused() {
+        for (String format : PayloadCodec.FORMATS) {
+            PayloadCodec codec = PayloadCodec.forName(format);
+            byte[] first = codec.encode(new TelemetryMessage("client-1", 1, 1, "first message"));
+            byte[] second = codec.encode(new TelemetryMessage("client-1", 2, 2, "second"));
+            assertEquals("first message", codec.decode(first).getText());
+            assertEquals("second", codec.decode(second).getText());
+        }
+    }
+
+    @Test
+    public void textRoundTripKeepsTextAndSequence() {
+        TelemetryMessage message = new TextPayloadCodec().decode(
+                new TextPayloadCodec().encode(new TelemetryMessage("client-1", 7, 1700000000000L, "Hello #1")));
+        assertMessage(new TelemetryMessage(null, 7, 0, "Hello #1"), message);
+    }
+
+    @Test
+    public void textWithoutParseableSequenceHasNoSequence() {
+        TelemetryMessage message = new TextPayloadCodec().decode("Hello #4!".getBytes(StandardCharsets.UTF_8));
+        assertMessage(new TelemetryMessage(null, TelemetryMessage.NO_SEQUENCE, 0, "Hello #4!"), message);
+        assertEquals("Hello #4!", message.toString());
+    }
+
+    @Test
+    public void jsonSkipsUnknownFields() {
+        TelemetryMessage message = decodeJson(" { \"extra\" : [1, {\"nested\": \"}\"}], \"number\": -1.5e+3, "
+                + "\"flag\": true, \"other\": false, \"missing\": null, \"sequence\": 3, \"text\": \"a\\u0041\" } ");
+        assertMessage(new TelemetryMessage(null, 3, 0, "aA"), message);
+    }
+
+    @Test
+    public void jsonAcceptsEmptyObject() {
+        assertMessage(new TelemetryMessage(null, TelemetryMessage.NO_SEQUENCE, 0, null), decodeJson("{}"));
+    }
+
+    @Test
+    public void jsonRejectsMalformedPayloads() {
+        assertMalformedJson("");
+        assertMalformedJson("[]");
+        assertMalformedJson("{null:1}");
+        assertMalformedJson("{1:2}");
+        assertMalformedJson("{\"a\":}");
+        assertMalformedJson("{\"a\":,\"sequence\":1}");
+        assertMalformedJson("{\"a\":tru,\"sequence\":2}");
+        assertMalformedJson("{\"a\":1.}");
+        assertMalformedJson("{\"a\":-}");
+        assertMalformedJson("{\"a\":[1}");
+        assertMalformedJson("{\"text\":\"\\x\"}");
+        assertMalformedJson("{\"text\":\"\\u00\"}");
+        assertMalformedJson("{\"text\":\"unterminated}");
+        assertMalformedJson("{\"sequence\":\"1\"}");
+        assertMalformedJson("{\"sequence\":1,}");
+        assertMalformedJson("{\"sequence\":1} trailing");
+    }
+
+    @Test
+    public void binaryRejectsMalformedPayloads() {
+        byte[] payload = new BinaryPayloadCodec().encode(new TelemetryMessage("client-1", 1, 1, "text"));
+        byte[][] malformed = {
+                new byte[0],
+                { 2 },
+                Arrays.copyOf(payload, payload.length - 1),
+                Arrays.copyOf(payload, payload.length + 1),
+        };
+        for (byte[] bytes : malformed) {
+            try {
+                new BinaryPayloadCodec().decode(bytes);
+                fail("Expected " + bytes.length + " bytes to be rejected");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void toStringOmitsFieldsThatAreNotCarried() {
+        assertEquals("hello #3 [source client-1, timestamp 1700000000000]",
+                new TelemetryMessage("client-1", 3, 1700000000000L, "hello").toString());
+        assertEquals("hello #3 [source client-1]", new TelemetryMessage("client-1", 3, 0, "hello").toString());
+        assertEquals("hello #3", new TelemetryMessage(null, 3, 0, "hello").toString());
+    }
+
+}
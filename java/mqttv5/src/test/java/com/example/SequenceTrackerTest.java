@@ -0,0 +1,152 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SequenceTrackerTest {
+
+    private static final int WINDOW = 64;
+
+    private final SequenceTracker tracker = new SequenceTracker(WINDOW);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWindowThatIsNotAMultipleOf64() {
+        new SequenceTracker(100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyWindow() {
+        new SequenceTracker(0);
+    }
+
+    @Test
+    public void tracksSequencesInOrder() {
+        for (long sequence = 1; sequence <= 5; sequence++) {
+            assertEquals(SequenceTracker.Result.NEW, tracker.track("a", sequence, 100 + sequence));
+        }
+        assertEquals("5 received from 1 sources, 0 duplicates, 0 reordered, 0 missing, 0 too old, 0 restarts, "
+                + "0 untracked", tracker.toString());
+    }
+
+    @Test
+    public void tracksSourcesIndependently() {
+        tracker.track("a", 1, 101);
+        assertEquals(SequenceTracker.Result.NEW, tracker.track("b", 1, 101));
+        assertEquals(SequenceTracker.Result.DUPLICATE, tracker.track("a", 1, 101));
+        assertEquals("3 received from 2 sources, 1 duplicates, 0 reordered, 0 missing, 0 too old, 0 restarts, "
+                + "0 untracked", tracker.toString());
+    }
+
+    @Test
+    public void redeliveryIsDuplicate() {
+        tracker.track("a", 1, 101);
+        tracker.track("a", 2, 102);
+        tracker.track("a", 3, 103);
+        // A redelivery repeats the original timestamp
+        assertEquals(SequenceTracker.Result.DUPLICATE, tracker.track("a", 2, 102));
+        assertEquals(SequenceTracker.Result.DUPLICATE, tracker.track("a", 3, 103));
+        assertEquals("5 received from 1 sources, 2 duplicates, 0 reordered, 0 missing, 0 too old, 0 restarts, "
+                + "0 untracked", tracker.toString());
+    }
+
+    @Test
+    public void reorderedMessageFillsGap() {
+        tracker.track("a", 1, 101);
+        tracker.track("a", 4, 104);
+        assertEquals("2 received from 1 sources, 0 duplicates, 0 reordered, 2 missing, 0 too old, 0 restarts, "
+                + "0 untracked", tracker.toString());
+        assertEquals(SequenceTracker.Result.REORDERED, tracker.track("a", 3, 103));
+        assertEquals(SequenceTracker.Result.REORDERED, tracker.track("a", 2, 102));
+        assertEquals(SequenceTracker.Result.DUPLICATE, tracker.track("a", 2, 102));
+        assertEquals("5 received from 1 sources, 1 duplicates, 2 reordered, 0 missing, 0 too old, 0 restarts, "
+                + "0 untracked", tracker.toString());
+    }
+
+    @Test
+    public void reorderedMessageBeforeFirstIsNotCountedAsFilled() {
+        tracker.track("a", 5, 105);
+        assertEquals(SequenceTracker.Result.REORDERED, tracker.track("a", 3, 103));
+        assertEquals("2 received from 1 sources, 0 duplicates, 1 reordered, 0 missing, 0 too old, 0 restarts, "
+                + "0 untracked", tracker.toString());
+    }
+
+    @Test
+    public void restartWithinWindowIsDetectedByTimestamp() {
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            tracker.track("a", sequence, 100 + sequence);
+        }
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            assertEquals(SequenceTracker.Result.NEW, tracker.track("a", sequence, 200 + sequence));
+        }
+        assertEquals("6 received from 1 sources, 0 duplicates, 0 reordered, 0 missing, 0 too old, 1 restarts, "
+                + "0 untracked", tracker.toString());
+    }
+
+    @Test
+    public void restartWithoutTimestampIsDetectedOutsideWindow() {
+        for (long sequence = 1; sequence <= WINDOW + 1; sequence++) {
+            tracker.track("a", sequence, 0);
+        }
+        assertEquals(SequenceTracker.Result.NEW, tracker.track("a", 1, 0));
+        assertEquals(SequenceTracker.Result.NEW, tracker.track("a", 2, 0));
+        assertEquals("67 received from 1 sources, 0 duplicates, 0 reordered, 0 missing, 0 too old, 1 restarts, "
+                + "0 untracked", tracker.toString());
+    }
+
+    @Test
+    public void sequenceOutsideWindowIsTooOld() {
+        tracker.track("a", 1, 101);
+        tracker.track("a", 2, 102);
+        tracker.track("a", 100, 200);
+        assertEquals(SequenceTracker.Result.TOO_OLD, tracker.track("a", 3, 103));
+        assertEquals(SequenceTracker.Result.REORDERED, tracker.track("a", 100 - WINDOW + 1, 137));
+        assertEquals("5 received from 1 sources, 0 duplicates, 1 reordered, 96 missing, 1 too old, 0 restarts, "
+                + "0 untracked", tracker.toString());
+    }
+
+    @Test
+    public void windowWrapClearsSlotsOfSkippedSequences() {
+        for (long sequence = 1; sequence <= WINDOW; sequence++) {
+            tracker.track("a", sequence, 100 + sequence);
+        }
+        // Skipping WINDOW + 1 reuses the slot of sequence 1, which must not report it as received
+        tracker.track("a", WINDOW + 2, 100 + WINDOW + 2);
+        assertEquals(SequenceTracker.Result.REORDERED, tracker.track("a", WINDOW + 1, 100 + WINDOW + 1));
+        assertEquals(SequenceTracker.Result.DUPLICATE, tracker.track("a", WINDOW + 1, 100 + WINDOW + 1));
+        assertEquals("67 received from 1 sources, 1 duplicates, 1 reordered, 0 missing, 0 too old, 0 restarts, "
+                + "0 untracked", tracker.toString());
+    }
+
+    @Test
+    public void windowWrapKeepsBitsOfSequencesStillInWindow() {
+        for (long sequence = 1; sequence <= 3 * WINDOW; sequence++) {
+            assertEquals(SequenceTracker.Result.NEW, tracker.track("a", sequence, 100 + sequence));
+        }
+        assertEquals(SequenceTracker.Result.DUPLICATE, tracker.track("a", 2 * WINDOW + 1, 100 + 2 * WINDOW + 1));
+        assertEquals(SequenceTracker.Result.TOO_OLD, tracker.track("a", 2 * WINDOW, 100 + 2 * WINDOW));
+    }
+
+    @Test
+    public void growsBeyondInitialSourceCapacity() {
+        for (int source = 0; source < 100; source++) {
+            tracker.track("source-" + source, 1, 101);
+            tracker.track("source-" + source, 3, 103);
+        }
+        for (int source = 0; source < 100; source++) {
+            assertEquals(SequenceTracker.Result.REORDERED, tracker.track("source-" + source, 2, 102));
+            assertEquals(SequenceTracker.Result.DUPLICATE, tracker.track("source-" + source, 3, 103));
+        }
+        assertEquals("400 received from 100 sources, 100 duplicates, 100 reordered, 0 missing, 0 too old, "
+                + "0 restarts, 0 untracked", tracker.toString());
+    }
+
+    @Test
+    public void skippedMessagesAreCountedAsUntracked() {
+        tracker.skip();
+        tracker.track("a", 1, 101);
+        assertEquals("1 received from 1 sources, 0 duplicates, 0 reordered, 0 missing, 0 too old, 0 restarts, "
+                + "1 untracked", tracker.toString());
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
+import org.junit.Test;
+
+public class TopicRouterTest {
+
+    private final TopicRouter router = new TopicRouter();
+    private final List<String> routed = new ArrayList<>();
+
+    private void addRoute(String topicFilter) {
+        router.addRoute(topicFilter, (topic, message) -> routed.add(topicFilter));
+    }
+
+    private void addRoute(String topicFilter, int subscriptionIdentifier) {
+        router.addRoute(topicFilter, subscriptionIdentifier, (topic, message) -> routed.add(topicFilter));
+    }
+
+    private List<String> route(String topic, Integer... subscriptionIdentifiers) throws Exception {
+        MqttMessage message = new MqttMessage(new byte[0]);
+        MqttProperties properties = new MqttProperties();
+        properties.setSubscriptionIdentifiers(Arrays.asList(subscriptionIdentifiers));
+        message.setProperties(properties);
+        routed.clear();
+        router.route(topic, message);
+        Collections.sort(routed);
+        return new ArrayList<>(routed);
+    }
+
+    @Test
+    public void matchesExactTopic() throws Exception {
+        addRoute("a/b");
+        assertEquals(Arrays.asList("a/b"), route("a/b"));
+        assertEquals(Collections.emptyList(), route("a/b/c"));
+        assertEquals(Collections.emptyList(), route("a"));
+    }
+
+    @Test
+    public void singleLevelWildcardMatchesOneLevel() throws Exception {
+        addRoute("a/+/c");
+        assertEquals(Arrays.asList("a/+/c"), route("a/b/c"));
+        assertEquals(Arrays.asList("a/+/c"), route("a//c"));
+        assertEquals(Collections.emptyList(), route("a/b/d/c"));
+        assertEquals(Collections.emptyList(), route("a/c"));
+    }
+
+    @Test
+    public void multiLevelWildcardMatchesParentAndDescendants() throws Exception {
+        addRoute("a/#");
+        assertEquals(Arrays.asList("a/#"), route("a"));
+        assertEquals(Arrays.asList("a/#"), route("a/b"));
+        assertEquals(Arrays.asList("a/#"), route("a/b/c"));
+        assertEquals(Collections.emptyList(), route("b"));
+    }
+
+    @Test
+    public void wildcardsAtFirstLevelDoNotMatchDollarTopics() throws Exception {
+        addRoute("#");
+        addRoute("+/status");
+        addRoute("$SYS/#");
+        assertEquals(Arrays.asList("$SYS/#"), route("$SYS/status"));
+        assertEquals(Arrays.asList("#", "+/status"), route("device/status"));
+    }
+
+    @Test
+    public void sharedSubscriptionMatchesItsTopicFilter() throws Exception {
+        addRoute("$share/group/a/+");
+        assertEquals(Arrays.asList("$share/group/a/+"), route("a/b"));
+        assertEquals(Collections.emptyList(), route("$share/group/a/b"));
+    }
+
+    @Test
+    public void overlappingFiltersAreAllMatched() throws Exception {
+        addRoute("a/#");
+        addRoute("a/+");
+        addRoute("a/b");
+        assertEquals(Arrays.asList("a/#", "a/+", "a/b"), route("a/b"));
+    }
+
+    @Test
+    public void routesAddedLaterInvalidateResolvedTopics() throws Exception {
+        addRoute("a/b");
+        assertEquals(Arrays.asList("a/b"), route("a/b"));
+        addRoute("a/+");
+        assertEquals(Arrays.asList("a/+", "a/b"), route("a/b"));
+    }
+
+    @Test
+    public void subscriptionIdentifiersSelectRoutes() throws Exception {
+        addRoute("a/#", 1);
+        addRoute("a/+", 2);
+        // A broker sending one copy per subscription tags each copy with a single identifier
+        assertEquals(Arrays.asList("a/#"), route("a/b", 1));
+        assertEquals(Arrays.asList("a/+"), route("a/b", 2));
+        assertEquals(Arrays.asList("a/#", "a/+"), route("a/b", 1, 2));
+    }
+
+    @Test
+    public void unknownSubscriptionIdentifiersFallBackToTopicMatching() throws Exception {
+        addRoute("a/#", 1);
+        addRoute("a/+", 2);
+        assertEquals(Arrays.asList("a/#", "a/+"), route("a/b", 3));
+        assertEquals(Arrays.asList("a/#", "a/+"), route("a/b"));
+    }
+
+    @Test
+    public void routeReportsUnmatchedTopics() throws Exception {
+        addRoute("a");
+        assertFalse(router.route("b", new MqttMessage(new byte[0])));
+        assertTrue(router.route("a", new MqttMessage(new byte[0])));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDuplicateSubscriptionIdentifier() {
+        addRoute("a", 1);
+        addRoute("b", 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMultiLevelWildcardBeforeLastLevel() {
+        addRoute("a/#/b");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWildcardWithinLevel() {
+        addRoute("a/b+");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSharedSubscriptionWithoutTopicFilter() {
+        addRoute("$share/group");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyTopicFilter() {
+        addRoute("");
+    }
+
+}